@@ -4,7 +4,6 @@ import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -12,8 +11,8 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Arrays;
-import java.util.Random;
 
 /**
  * @description: 文件加密工具类
@@ -24,12 +23,13 @@ public class FileCryptoUtil {
     private static final int IV_LENGTH = 16;
     private static final int KEY_LENGTH = 16;
     private static final int KEY_HASH_LENGTH = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     /**
      * 文件加密
      *
      * @param fis
-     * @param fos
+     * @param os
      * @param encKey
      * @throws IOException
      * @throws InvalidKeyException
@@ -37,19 +37,19 @@ public class FileCryptoUtil {
      * @throws NoSuchPaddingException
      * @throws InvalidAlgorithmParameterException
      */
-    public static void encryptFile(FileInputStream fis, FileOutputStream fos, String encKey) throws IOException, InvalidKeyException, NoSuchAlgorithmException, NoSuchPaddingException, InvalidAlgorithmParameterException {
+    public static void encryptFile(FileInputStream fis, OutputStream os, String encKey) throws IOException, InvalidKeyException, NoSuchAlgorithmException, NoSuchPaddingException, InvalidAlgorithmParameterException {
         byte[] encKeyBytes = getEncKeyBytes(encKey);
         final byte[] encKeySha256 = sha256(encKeyBytes);
-        fos.write(encKeySha256);
+        os.write(encKeySha256);
         byte[] ivBytes = getRandomIv();
-        fos.write(ivBytes);
+        os.write(ivBytes);
         Cipher cipher = getCipher(encKeyBytes, ivBytes, Cipher.ENCRYPT_MODE);
         // 构造加密流并输出
         try (CipherInputStream cis = new CipherInputStream(fis, cipher)) {
             byte[] buffer = new byte[1024];
             int n;
             while ((n = cis.read(buffer)) != -1) {
-                fos.write(buffer, 0, n);
+                os.write(buffer, 0, n);
             }
         }
     }
@@ -91,14 +91,13 @@ public class FileCryptoUtil {
     }
 
     /**
-     * 获取系统时间作为初始向量IV
+     * 生成随机初始向量IV，并发加密时不同任务的IV互不相同
      *
      * @return
      */
     private static byte[] getRandomIv() {
         byte[] ivBytes = new byte[IV_LENGTH];
-        Random random = new Random(System.currentTimeMillis());
-        random.nextBytes(ivBytes);
+        RANDOM.nextBytes(ivBytes);
         return ivBytes;
     }
 
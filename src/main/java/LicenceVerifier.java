@@ -0,0 +1,132 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * @description: 序列号验签器，启动时解析一次PublicKey和SN文件，多线程共享使用；文件被替换后需重新加载
+ * @author：Favor
+ * @date: 2024/5/31
+ */
+public class LicenceVerifier {
+    private static final String SCHEME_SEPARATOR = ":";
+
+    private final File keyFile;
+    private final File snFile;
+    // 加载时两个文件的修改时间、大小和inode，用于判断文件是否被替换
+    private final String keyStamp;
+    private final String snStamp;
+    private final SignatureScheme scheme;
+    private final PublicKey publicKey;
+    private final byte[] serial;
+    // Signature实例非线程安全，已initVerify的实例放回池中复用
+    private final ConcurrentLinkedQueue<Signature> pool = new ConcurrentLinkedQueue<>();
+
+    private LicenceVerifier(File keyFile, File snFile, String keyStamp, String snStamp,
+                            SignatureScheme scheme, PublicKey publicKey, byte[] serial) throws GeneralSecurityException {
+        this.keyFile = keyFile;
+        this.snFile = snFile;
+        this.keyStamp = keyStamp;
+        this.snStamp = snStamp;
+        this.scheme = scheme;
+        this.publicKey = publicKey;
+        this.serial = serial;
+        pool.offer(newVerifier());
+    }
+
+    /**
+     * 读取序列号认证码文件和序列号文件，构造验签器
+     *
+     * @param keyFile
+     * @param snFile
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public static LicenceVerifier load(File keyFile, File snFile) throws GeneralSecurityException, IOException {
+        if (!keyFile.exists()) {
+            throw new RuntimeException("PublicKey文件不存在: " + keyFile.getAbsolutePath());
+        }
+        if (!snFile.exists()) {
+            throw new RuntimeException("SN文件不存在: " + snFile.getAbsolutePath());
+        }
+        // 先记录文件状态再读取内容，读取期间文件被替换时下次检查会重新加载
+        String keyStamp = stamp(keyFile);
+        String snStamp = stamp(snFile);
+        PublicKey publicKey = SignatureUtil.deserializeObjectFromFile(String.valueOf(keyFile));
+        String sn = SignatureUtil.deserializeObjectFromFile(String.valueOf(snFile));
+        if (publicKey == null || sn == null) {
+            throw new RuntimeException("序列号文件读取失败，请检查！");
+        }
+        // 历史SN文件只有十六进制签名，没有算法前缀
+        SignatureScheme scheme = SignatureScheme.LEGACY_MD5_RSA;
+        int index = sn.indexOf(SCHEME_SEPARATOR);
+        if (index >= 0) {
+            scheme = SignatureScheme.fromSchemeName(sn.substring(0, index));
+            sn = sn.substring(index + 1);
+        }
+        return new LicenceVerifier(keyFile, snFile, keyStamp, snStamp, scheme, publicKey, SignatureUtil.hexStringToByteArray(sn));
+    }
+
+    /**
+     * 生成SN文件内容：算法名称:十六进制签名
+     *
+     * @param scheme
+     * @param signature
+     * @return
+     */
+    public static String formatSerial(SignatureScheme scheme, byte[] signature) {
+        return scheme.getSchemeName() + SCHEME_SEPARATOR + SignatureUtil.byteArrayToHexString(signature);
+    }
+
+    public SignatureScheme getScheme() {
+        return scheme;
+    }
+
+    /**
+     * 判断PublicKey和SN文件自加载后是否未被修改、替换或删除
+     *
+     * @return
+     * @throws IOException
+     */
+    public boolean isCurrent() throws IOException {
+        try {
+            return keyStamp.equals(stamp(keyFile)) && snStamp.equals(stamp(snFile));
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 验证签名
+     *
+     * @param src
+     * @return
+     * @throws GeneralSecurityException
+     */
+    public boolean verify(String src) throws GeneralSecurityException {
+        Signature signature = pool.poll();
+        if (signature == null) {
+            signature = newVerifier();
+        }
+        signature.update(src.getBytes());
+        boolean bool = signature.verify(serial);
+        // verify()完成后实例回到initVerify之后的状态，可以直接复用；异常时丢弃
+        pool.offer(signature);
+        return bool;
+    }
+
+    private static String stamp(File file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return attrs.lastModifiedTime() + ":" + attrs.size() + ":" + attrs.fileKey();
+    }
+
+    private Signature newVerifier() throws GeneralSecurityException {
+        Signature signature = scheme.newSignature();
+        signature.initVerify(publicKey);
+        return signature;
+    }
+}
@@ -8,6 +8,8 @@ import java.util.Scanner;
 public class Main {
     public static void main(String[] args) throws Exception {
         Scanner scanner = new Scanner(System.in);
+        OutputUtil.cleanStaleTempFiles();
+        SignatureUtil.preloadVerifier();
         int count = 10;
         while (count>0) {
             System.out.println(new String(new char[50]).replace("\0", "\r\n"));
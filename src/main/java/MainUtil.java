@@ -1,10 +1,8 @@
-import javax.crypto.NoSuchPaddingException;
 import java.io.*;
 import java.net.InetAddress;
 import java.net.InterfaceAddress;
 import java.net.NetworkInterface;
 import java.security.*;
-import java.security.interfaces.RSAPrivateKey;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -29,9 +27,27 @@ public class MainUtil {
         Scanner scanner = new Scanner(System.in);
         System.out.println("\n请输入用户名: ");
         String hash2 = getHash(scanner.nextLine());
-        //给hash2进行RSA数字签名产生序列号
-        RSAPrivateKey rsaPrivateKey = SignatureUtil.init();
-        SignatureUtil.rsaSign(hash2, rsaPrivateKey);
+        System.out.println("请选择签名算法（直接回车使用RSA-PSS/SHA-256）: ");
+        System.out.println("1. RSA-PSS/SHA-256");
+        System.out.println("2. Ed25519");
+        SignatureScheme scheme;
+        switch (scanner.nextLine().trim()) {
+            case "":
+                scheme = SignatureScheme.DEFAULT;
+                break;
+            case "1":
+                scheme = SignatureScheme.RSA_PSS_SHA256;
+                break;
+            case "2":
+                scheme = SignatureScheme.ED25519;
+                break;
+            default:
+                System.out.println("\n无效选项，请重新选择");
+                return;
+        }
+        //给hash2进行数字签名产生序列号
+        KeyPair keyPair = SignatureUtil.init(scheme);
+        SignatureUtil.sign(hash2, keyPair, scheme);
     }
 
     /**
@@ -46,7 +62,7 @@ public class MainUtil {
         System.out.println("\n进行序列号认证前，请确保序列号认证码文件PublicKey和保序列号文件SN已经放到指定位置: " + tmp.getAbsolutePath());
         System.out.println("请输入用户名: ");
         String hash2 = getHash(scanner.nextLine());
-        return SignatureUtil.rsaVerify(hash2);
+        return SignatureUtil.verify(hash2);
     }
 
     /**
@@ -72,19 +88,13 @@ public class MainUtil {
         if (!sourceFile.exists()) {
             throw new RuntimeException("文件不存在: " + sourceFile.getAbsolutePath());
         }
-        encFile = new File(TARGET_PATH + File.separator + "enc_" + fileName);
-        System.out.println("加密后文件路径为: " + encFile.getAbsolutePath());
-        if (encFile.exists()) {
-            encFile.delete();
-        }
         // 加密
-        try (FileInputStream fis = new FileInputStream(sourceFile);
-             FileOutputStream fos = new FileOutputStream(encFile, true)) {
-            FileCryptoUtil.encryptFile(fis, fos, key);
-        } catch (IOException | NoSuchAlgorithmException | NoSuchPaddingException |
-                 InvalidAlgorithmParameterException | InvalidKeyException e) {
+        try (FileInputStream fis = new FileInputStream(sourceFile)) {
+            encFile = OutputUtil.publish("enc_", fileName, os -> FileCryptoUtil.encryptFile(fis, os, key));
+        } catch (IOException | GeneralSecurityException e) {
             throw new RuntimeException(e);
         }
+        System.out.println("加密后文件路径为: " + encFile.getAbsolutePath());
     }
 
     /**
@@ -113,19 +123,13 @@ public class MainUtil {
         if (!sourceFile.exists()) {
             throw new RuntimeException("文件不存在: " + sourceFile.getAbsolutePath());
         }
-        decFile = new File(TARGET_PATH + File.separator + "dec_" + fileName);
-        System.out.println("解密后文件路径为: " + decFile.getAbsolutePath());
-        if (decFile.exists()) {
-            decFile.delete();
-        }
         // 解密
-        try (FileInputStream fis = new FileInputStream(sourceFile);
-             FileOutputStream fos = new FileOutputStream(decFile, true)) {
-            FileCryptoUtil.decryptedFile(fis, fos, key);
-        } catch (IOException | NoSuchAlgorithmException | NoSuchPaddingException |
-                 InvalidAlgorithmParameterException | InvalidKeyException e) {
+        try (FileInputStream fis = new FileInputStream(sourceFile)) {
+            decFile = OutputUtil.publish("dec_", fileName, os -> FileCryptoUtil.decryptedFile(fis, os, key));
+        } catch (IOException | GeneralSecurityException e) {
             throw new RuntimeException(e);
         }
+        System.out.println("解密后文件路径为: " + decFile.getAbsolutePath());
     }
 
     public static void embedWaterMark() throws Exception {
@@ -139,7 +143,7 @@ public class MainUtil {
         String userName = scanner.nextLine();
         String hash2 = getHash(userName);
 
-        if (SignatureUtil.rsaVerify(hash2)) {
+        if (SignatureUtil.verify(hash2)) {
             System.out.println("接下来对文件添加数字水印");
         } else {
             System.out.println("未授权禁止添加数字水印！");
@@ -153,12 +157,8 @@ public class MainUtil {
         if (!sourceFile.exists()) {
             throw new RuntimeException("文件不存在: " + sourceFile.getAbsolutePath());
         }
-        embedFile = new File(TARGET_PATH + File.separator + "embed_" + fileName);
+        embedFile = OutputUtil.publish("embed_", fileName, os -> WaterMarkUtil.embedWaterMark(sourceFile, os, userName));
         System.out.println("添加数字水印后文件路径为: " + embedFile.getAbsolutePath());
-        if (embedFile.exists()) {
-            embedFile.delete();
-        }
-        WaterMarkUtil.embedWaterMark(sourceFile,embedFile, userName);
     }
     public static void extractWaterMark() throws IOException {
         File sourceFile;
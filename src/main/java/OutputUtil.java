@@ -0,0 +1,236 @@
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @description: 输出文件工具类，先写临时文件再原子移动到目标位置，避免并发任务互相覆盖或留下写了一半的文件
+ * @author：Favor
+ * @date: 2024/5/31
+ */
+public class OutputUtil {
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String LOCK_FILE_NAME = ".licence.lock";
+    private static final int NAME_HASH_LENGTH = 8;
+    // 临时文件名前缀，对应 enc_/dec_/embed_ 结果和PublicKey、SN序列号文件
+    private static final String[] TEMP_PREFIXES = {".enc_", ".dec_", ".embed_", ".PublicKey.", ".SN."};
+    // 超过该时间未修改的临时文件视为崩溃残留，正在写入的临时文件修改时间会持续更新
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000L;
+    // 同一JVM内的线程先在此排队，FileLock只负责进程间互斥
+    private static final ReentrantLock LICENCE_LOCK = new ReentrantLock();
+
+    /**
+     * 向输出流写入结果内容
+     */
+    @FunctionalInterface
+    public interface OutputWriter {
+        void write(OutputStream os) throws IOException, GeneralSecurityException;
+    }
+
+    /**
+     * 持有序列号文件锁期间执行的操作
+     */
+    @FunctionalInterface
+    public interface LicenceAction<T> {
+        T run() throws IOException, GeneralSecurityException;
+    }
+
+    /**
+     * 将结果写入临时文件，按内容摘要命名后原子发布到TARGET_PATH，文件名形如 prefix + 摘要前8位 + "_" + fileName
+     * 内容相同的结果得到同名文件，已存在的文件不会被覆盖
+     *
+     * @param prefix
+     * @param fileName
+     * @param writer
+     * @return 发布后的文件
+     * @throws IOException
+     * @throws GeneralSecurityException
+     */
+    public static File publish(String prefix, String fileName, OutputWriter writer) throws IOException, GeneralSecurityException {
+        Path dir = Paths.get(MainUtil.TARGET_PATH);
+        Path tmp = tempPath(dir, prefix + fileName);
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                OutputStream os = new DigestOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), md);
+                writer.write(os);
+                os.flush();
+                channel.force(true);
+            }
+            byte[] digest = md.digest();
+            String hash = SignatureUtil.byteArrayToHexString(digest);
+            // 同名文件已存在时，只有完整摘要相同才复用；否则加长摘要前缀，仍冲突时追加随机后缀
+            for (int length = NAME_HASH_LENGTH; length <= hash.length(); length *= 2) {
+                Path target = dir.resolve(prefix + hash.substring(0, length) + "_" + fileName);
+                if (moveIfAbsent(tmp, target) || MessageDigest.isEqual(digest, sha256(target))) {
+                    return target.toFile();
+                }
+            }
+            Path target = dir.resolve(prefix + hash + "_" + UUID.randomUUID() + "_" + fileName);
+            if (!moveIfAbsent(tmp, target)) {
+                throw new FileAlreadyExistsException(target.toString());
+            }
+            return target.toFile();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 将对象序列化后原子替换目标文件
+     *
+     * @param object
+     * @param target
+     * @throws IOException
+     */
+    public static void writeObject(Object object, Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path tmp = tempPath(dir, target.getFileName().toString());
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ObjectOutputStream oos = new ObjectOutputStream(Channels.newOutputStream(channel));
+                oos.writeObject(object);
+                oos.flush();
+                channel.force(true);
+            }
+            moveAtomically(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 清理TARGET_PATH中进程崩溃后残留的临时文件，程序启动时调用
+     */
+    public static void cleanStaleTempFiles() {
+        File[] files = new File(MainUtil.TARGET_PATH).listFiles();
+        if (files == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        for (File file : files) {
+            if (isTempFile(file.getName()) && file.isFile() && file.lastModified() < deadline) {
+                file.delete();
+            }
+        }
+    }
+
+    private static boolean isTempFile(String name) {
+        if (!name.endsWith(TEMP_SUFFIX)) {
+            return false;
+        }
+        for (String prefix : TEMP_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 持有序列号文件锁执行操作，保证PublicKey和SN成对更新、成对读取
+     *
+     * @param action
+     * @return
+     * @throws IOException
+     * @throws GeneralSecurityException
+     */
+    public static <T> T withLicenceLock(LicenceAction<T> action) throws IOException, GeneralSecurityException {
+        LICENCE_LOCK.lock();
+        try {
+            // 同一线程重入时已持有FileLock，重复加锁会抛OverlappingFileLockException
+            if (LICENCE_LOCK.getHoldCount() > 1) {
+                return action.run();
+            }
+            Path lockFile = Paths.get(MainUtil.TARGET_PATH, LOCK_FILE_NAME);
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock fileLock = channel.lock();
+                try {
+                    return action.run();
+                } finally {
+                    fileLock.release();
+                }
+            }
+        } finally {
+            LICENCE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * 生成唯一的临时文件路径，形如 .name.uuid.tmp
+     * 不用Files.createTempFile，它会把权限设为0600，移动后输出文件对其他用户不可读；CREATE_NEW创建时遵循umask
+     *
+     * @param dir
+     * @param name
+     * @return
+     */
+    private static Path tempPath(Path dir, String name) {
+        return dir.resolve("." + name + "." + UUID.randomUUID() + TEMP_SUFFIX);
+    }
+
+    /**
+     * 目标不存在时原子发布文件，目标已存在返回false
+     * 用硬链接而不是rename，rename在Unix上会直接覆盖已存在的目标；不支持硬链接时退化为不覆盖的移动
+     *
+     * @param source
+     * @param target
+     * @return
+     * @throws IOException
+     */
+    private static boolean moveIfAbsent(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException | IOException e) {
+            try {
+                Files.move(source, target);
+                return true;
+            } catch (FileAlreadyExistsException ex) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 计算文件的SHA-256摘要
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     * @throws GeneralSecurityException
+     */
+    private static byte[] sha256(Path file) throws IOException, GeneralSecurityException {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        try (InputStream is = new DigestInputStream(new BufferedInputStream(Files.newInputStream(file)), md)) {
+            byte[] buffer = new byte[8192];
+            while (is.read(buffer) != -1) {
+                // 读取过程中更新摘要
+            }
+        }
+        return md.digest();
+    }
+
+    /**
+     * 原子替换文件，文件系统不支持时退化为覆盖移动
+     *
+     * @param source
+     * @param target
+     * @throws IOException
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import java.security.*;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+
+/**
+ * @description: 序列号签名算法，算法名称随序列号一起写入SN文件
+ * @author：Favor
+ * @date: 2024/5/31
+ */
+public enum SignatureScheme {
+    /**
+     * Ed25519，密钥和签名都很短，但JDK 17中验签慢于RSA-PSS
+     */
+    ED25519("Ed25519", "Ed25519", 0),
+    /**
+     * RSA-PSS/SHA-256，3072位密钥，验签开销最小，默认算法（见SignatureBenchmark）
+     */
+    RSA_PSS_SHA256("RSA-PSS-SHA256", "RSASSA-PSS", 3072),
+    /**
+     * 旧版MD5withRSA，仅用于验证不带算法前缀的历史SN文件
+     */
+    LEGACY_MD5_RSA("MD5withRSA", "RSA", 512);
+
+    public static final SignatureScheme DEFAULT = RSA_PSS_SHA256;
+
+    private final String schemeName;
+    private final String keyAlgorithm;
+    private final int keySize;
+
+    SignatureScheme(String schemeName, String keyAlgorithm, int keySize) {
+        this.schemeName = schemeName;
+        this.keyAlgorithm = keyAlgorithm;
+        this.keySize = keySize;
+    }
+
+    public String getSchemeName() {
+        return schemeName;
+    }
+
+    /**
+     * 生成该算法使用的密钥对
+     *
+     * @return
+     * @throws NoSuchAlgorithmException
+     */
+    public KeyPair generateKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(keyAlgorithm);
+        if (keySize > 0) {
+            keyPairGenerator.initialize(keySize);
+        }
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    /**
+     * 创建未初始化的Signature实例，RSA-PSS需要先设置填充参数
+     *
+     * @return
+     * @throws NoSuchAlgorithmException
+     * @throws InvalidAlgorithmParameterException
+     */
+    public Signature newSignature() throws NoSuchAlgorithmException, InvalidAlgorithmParameterException {
+        switch (this) {
+            case RSA_PSS_SHA256:
+                Signature signature = Signature.getInstance("RSASSA-PSS");
+                signature.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
+                return signature;
+            case LEGACY_MD5_RSA:
+                return Signature.getInstance("MD5withRSA");
+            default:
+                return Signature.getInstance(schemeName);
+        }
+    }
+
+    /**
+     * 根据SN文件中记录的算法名称查找签名算法
+     *
+     * @param schemeName
+     * @return
+     */
+    public static SignatureScheme fromSchemeName(String schemeName) {
+        for (SignatureScheme scheme : values()) {
+            if (scheme.schemeName.equalsIgnoreCase(schemeName)) {
+                return scheme;
+            }
+        }
+        throw new IllegalArgumentException("不支持的签名算法: " + schemeName);
+    }
+}
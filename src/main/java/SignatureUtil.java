@@ -1,64 +1,67 @@
 import java.io.*;
-import java.security.*;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.PKCS8EncodedKeySpec;
-import java.security.spec.X509EncodedKeySpec;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.Signature;
 
 /**
- * @description: RSA数字签名工具类
+ * @description: 数字签名工具类
  * @author：Favor
  * @date: 2024/5/31
  */
 public class SignatureUtil {
+    private static volatile LicenceVerifier verifier;
 
     /**
      * 初始化密钥
      *
+     * @param scheme
      * @return
-     * @throws Exception
+     * @throws GeneralSecurityException
      */
-    public static RSAPrivateKey init() throws Exception {
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-        keyPairGenerator.initialize(512);
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
-        RSAPublicKey rsaPublicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey rsaPrivateKey = (RSAPrivateKey) keyPair.getPrivate();
-        File sourceFile = new File(MainUtil.TARGET_PATH + File.separator + "PublicKey");
-        if (sourceFile.exists()) {
-            sourceFile.delete();
-        }
-        System.out.println("序列号认证码保存地址：" + sourceFile.getAbsolutePath());
-        serializeObjectToFile(rsaPublicKey, String.valueOf(sourceFile));
-        return rsaPrivateKey;
+    public static KeyPair init(SignatureScheme scheme) throws GeneralSecurityException {
+        return scheme.generateKeyPair();
     }
 
     /**
-     * 执行签名
+     * 执行签名，持有文件锁将PublicKey和SN一起原子写入
      *
      * @param src
-     * @param rsaPrivateKey
-     * @throws NoSuchAlgorithmException
-     * @throws InvalidKeySpecException
-     * @throws InvalidKeyException
-     * @throws SignatureException
+     * @param keyPair
+     * @param scheme
+     * @throws GeneralSecurityException
+     * @throws IOException
      */
-    public static void rsaSign(String src, RSAPrivateKey rsaPrivateKey) throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
-        PKCS8EncodedKeySpec pkcs8EncodedKeySpec = new PKCS8EncodedKeySpec(rsaPrivateKey.getEncoded());
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PrivateKey privateKey = keyFactory.generatePrivate(pkcs8EncodedKeySpec);
-        Signature signature = Signature.getInstance("MD5withRSA");
+    public static void sign(String src, KeyPair keyPair, SignatureScheme scheme) throws GeneralSecurityException, IOException {
+        byte[] result = sign(src.getBytes(), keyPair.getPrivate(), scheme);
+        File keyFile = new File(MainUtil.TARGET_PATH + File.separator + "PublicKey");
+        File snFile = new File(MainUtil.TARGET_PATH + File.separator + "SN");
+        OutputUtil.withLicenceLock(() -> {
+            OutputUtil.writeObject(keyPair.getPublic(), keyFile.toPath());
+            OutputUtil.writeObject(LicenceVerifier.formatSerial(scheme, result), snFile.toPath());
+            verifier = null;
+            return null;
+        });
+        System.out.println("序列号认证码保存地址：" + keyFile.getAbsolutePath());
+        System.out.println("序列号保存地址：" + snFile.getAbsolutePath());
+        System.out.println("序列号(" + scheme.getSchemeName() + "数字签名)为: " + byteArrayToHexString(result));
+    }
+
+    /**
+     * 对字节数组签名，不写文件
+     *
+     * @param data
+     * @param privateKey
+     * @param scheme
+     * @return
+     * @throws GeneralSecurityException
+     */
+    public static byte[] sign(byte[] data, PrivateKey privateKey, SignatureScheme scheme) throws GeneralSecurityException {
+        Signature signature = scheme.newSignature();
         signature.initSign(privateKey);
-        signature.update(src.getBytes());
-        byte[] result = signature.sign();
-        File sourceFile = new File(MainUtil.TARGET_PATH + File.separator + "SN");
-        if (sourceFile.exists()) {
-            sourceFile.delete();
-        }
-        System.out.println("序列号保存地址：" + sourceFile.getAbsolutePath());
-        System.out.println("序列号(RSA数字签名)为: " + byteArrayToHexString(result));
-        serializeObjectToFile(byteArrayToHexString(result), String.valueOf(sourceFile));
+        signature.update(data);
+        return signature.sign();
     }
 
     /**
@@ -66,47 +69,66 @@ public class SignatureUtil {
      *
      * @param src
      * @return
-     * @throws NoSuchAlgorithmException
-     * @throws InvalidKeySpecException
-     * @throws InvalidKeyException
-     * @throws SignatureException
+     * @throws GeneralSecurityException
+     * @throws IOException
      */
-    public static boolean rsaVerify(String src) throws NoSuchAlgorithmException, InvalidKeySpecException, InvalidKeyException, SignatureException {
-        File keyFile = new File(MainUtil.TARGET_PATH + File.separator + "PublicKey");
-        if (!keyFile.exists()) {
-            throw new RuntimeException("PublicKey文件不存在: " + keyFile.getAbsolutePath());
-        }
-        File snFile = new File(MainUtil.TARGET_PATH + File.separator + "SN");
-        if (!snFile.exists()) {
-            throw new RuntimeException("SN文件不存在: " + snFile.getAbsolutePath());
-        }
-        RSAPublicKey rsaPublicKey = deserializeObjectFromFile(String.valueOf(keyFile));
-        String sn=deserializeObjectFromFile(String.valueOf(snFile));
-        byte[] result = hexStringToByteArray(sn);
-        X509EncodedKeySpec x509EncodedKeySpec = new X509EncodedKeySpec(rsaPublicKey.getEncoded());
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        PublicKey publicKey = keyFactory.generatePublic(x509EncodedKeySpec);
-        Signature signature = Signature.getInstance("MD5withRSA");
-        signature.initVerify(publicKey);
-        signature.update(src.getBytes());
-        boolean bool = signature.verify(result);
+    public static boolean verify(String src) throws GeneralSecurityException, IOException {
+        LicenceVerifier licenceVerifier = getVerifier();
+        boolean bool = licenceVerifier.verify(src);
+        String schemeName = licenceVerifier.getScheme().getSchemeName();
         if (bool) {
-            System.out.println("序列号认证通过");
+            System.out.println("序列号认证通过(" + schemeName + ")");
         } else {
-            System.out.println("序列号认证未通过");
+            System.out.println("序列号认证未通过(" + schemeName + ")");
         }
         return bool;
     }
 
     /**
-     * 将给定的对象序列化到指定的文件中
+     * 获取验签器，PublicKey和SN文件只在首次使用或文件被修改、替换后解析
+     * 检查和加载都在文件锁内进行，其他进程更新的序列号文件也能成对读到
+     *
+     * @return
+     * @throws GeneralSecurityException
+     * @throws IOException
+     */
+    public static LicenceVerifier getVerifier() throws GeneralSecurityException, IOException {
+        return OutputUtil.withLicenceLock(() -> {
+            LicenceVerifier current = verifier;
+            if (current == null || !current.isCurrent()) {
+                current = LicenceVerifier.load(new File(MainUtil.TARGET_PATH + File.separator + "PublicKey"),
+                        new File(MainUtil.TARGET_PATH + File.separator + "SN"));
+                verifier = current;
+            }
+            return current;
+        });
+    }
+
+    /**
+     * 程序启动时预先构造验签器，序列号文件尚不存在时跳过
+     */
+    public static void preloadVerifier() {
+        File keyFile = new File(MainUtil.TARGET_PATH + File.separator + "PublicKey");
+        File snFile = new File(MainUtil.TARGET_PATH + File.separator + "SN");
+        if (!keyFile.exists() || !snFile.exists()) {
+            return;
+        }
+        try {
+            getVerifier();
+        } catch (GeneralSecurityException | IOException | RuntimeException e) {
+            System.out.println("序列号文件预加载失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 将给定的对象序列化到指定的文件中，原子替换已有文件
      *
      * @param object
      * @param filePath
      */
     public static <T> void serializeObjectToFile(T object, String filePath) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
-            oos.writeObject(object);
+        try {
+            OutputUtil.writeObject(object, Paths.get(filePath));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -1,6 +1,7 @@
 import org.apache.commons.io.FileUtils;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * @description: 数字水印类
@@ -14,11 +15,11 @@ public class WaterMarkUtil {
     /**
      * 嵌入水印
      * @param inputFile
-     * @param outputFile
+     * @param os
      * @param hiddenData
      * @throws IOException
      */
-    public static void embedWaterMark(File inputFile, File outputFile, String hiddenData) throws IOException {
+    public static void embedWaterMark(File inputFile, OutputStream os, String hiddenData) throws IOException {
         byte[] fileData = FileUtils.readFileToByteArray(inputFile);
         byte[] hiddenBytes = hiddenData.getBytes("UTF-8");
 
@@ -39,7 +40,7 @@ public class WaterMarkUtil {
             }
         }
 
-        FileUtils.writeByteArrayToFile(outputFile, fileData);
+        os.write(fileData);
     }
 
     /**
@@ -0,0 +1,128 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.stream.Stream;
+
+/**
+ * @description: 签名算法性能测试，输出各算法的密钥生成、签名、验签耗时以及冷启动验签耗时
+ * 冷启动耗时在独立JVM中测量，包含LicenceVerifier.load（读取文件、构造Signature、initVerify）和首次验签
+ * 运行方式：mvn test-compile 后执行 java -cp target/classes:target/test-classes SignatureBenchmark [迭代次数]
+ * @author：Favor
+ * @date: 2024/5/31
+ */
+public class SignatureBenchmark {
+    private static final String COLD_ARG = "--cold";
+    private static final int WARMUP = 200;
+    private static final int DEFAULT_ITERATIONS = 2000;
+    private static final int KEYGEN_SAMPLES = 5;
+    private static final String SOURCE = MainUtil.SHA256("benchmark");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 1 && COLD_ARG.equals(args[0])) {
+            coldVerify(new File(args[1]));
+            return;
+        }
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        byte[] data = SOURCE.getBytes();
+        System.out.printf("%-16s %14s %12s %12s %14s %12s%n", "算法", "密钥生成(ms)", "签名(us)", "验签(us)", "冷启动验签(ms)", "签名长度");
+        for (SignatureScheme scheme : SignatureScheme.values()) {
+            KeyPair keyPair = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < KEYGEN_SAMPLES; i++) {
+                keyPair = scheme.generateKeyPair();
+            }
+            double keyGenMs = (System.nanoTime() - start) / 1e6 / KEYGEN_SAMPLES;
+            PrivateKey privateKey = keyPair.getPrivate();
+
+            byte[] sig = null;
+            for (int i = 0; i < WARMUP; i++) {
+                sig = SignatureUtil.sign(data, privateKey, scheme);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sig = SignatureUtil.sign(data, privateKey, scheme);
+            }
+            double signUs = (System.nanoTime() - start) / 1e3 / iterations;
+
+            // 与LicenceVerifier一致：复用已initVerify的实例
+            Signature verifier = scheme.newSignature();
+            verifier.initVerify(keyPair.getPublic());
+            for (int i = 0; i < WARMUP; i++) {
+                verifier.update(data);
+                verifier.verify(sig);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                verifier.update(data);
+                if (!verifier.verify(sig)) {
+                    throw new IllegalStateException("验签失败: " + scheme.getSchemeName());
+                }
+            }
+            double verifyUs = (System.nanoTime() - start) / 1e3 / iterations;
+
+            double coldMs = measureCold(keyPair, sig, scheme);
+
+            System.out.printf("%-16s %14.2f %12.1f %12.1f %14.2f %12d%n",
+                    scheme.getSchemeName(), keyGenMs, signUs, verifyUs, coldMs, sig.length);
+        }
+    }
+
+    /**
+     * 写出序列号文件，在新JVM中测量冷启动验签耗时
+     *
+     * @param keyPair
+     * @param sig
+     * @param scheme
+     * @return
+     * @throws Exception
+     */
+    private static double measureCold(KeyPair keyPair, byte[] sig, SignatureScheme scheme) throws Exception {
+        Path dir = Files.createTempDirectory("drm-bench");
+        try {
+            OutputUtil.writeObject(keyPair.getPublic(), dir.resolve("PublicKey"));
+            OutputUtil.writeObject(LicenceVerifier.formatSerial(scheme, sig), dir.resolve("SN"));
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    SignatureBenchmark.class.getName(), COLD_ARG, dir.toString())
+                    .redirectErrorStream(true)
+                    .start();
+            String line;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                line = reader.readLine();
+            }
+            if (process.waitFor() != 0 || line == null) {
+                throw new IllegalStateException("冷启动测试失败: " + scheme.getSchemeName() + " " + line);
+            }
+            return Double.parseDouble(line.trim());
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * 子进程入口：加载序列号文件并完成首次验签，输出耗时(ms)
+     *
+     * @param dir
+     * @throws Exception
+     */
+    private static void coldVerify(File dir) throws Exception {
+        long start = System.nanoTime();
+        LicenceVerifier verifier = LicenceVerifier.load(new File(dir, "PublicKey"), new File(dir, "SN"));
+        boolean bool = verifier.verify(SOURCE);
+        double coldMs = (System.nanoTime() - start) / 1e6;
+        if (!bool) {
+            System.exit(1);
+        }
+        System.out.println(coldMs);
+    }
+}